@@ -2,14 +2,21 @@ package com.example.textile.controller;
 
 import com.example.textile.model.InvoiceItems;
 import com.example.textile.model.Invoices;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.example.textile.repository.CustomerRepository;
 import com.example.textile.repository.InvoiceRepository;
+import com.example.textile.service.IdempotencyStore;
 import com.example.textile.service.InvoiceService;
 
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @RestController
@@ -17,11 +24,46 @@ import java.util.*;
 @CrossOrigin(origins = "http://localhost:5200")
 public class BillingController {
     @Autowired private InvoiceRepository invoiceRepo;
+    @Autowired private CustomerRepository customerRepo;
     @Autowired private InvoiceService invoiceService;
+    @Autowired private IdempotencyStore idempotencyStore;
+    @Autowired private ObjectMapper objectMapper;
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
 
     @PostMapping("/invoice")
-    public Invoices createInvoice(@RequestBody Invoices invoice){
-        LocalDateTime now = LocalDateTime.now();
+    public Invoices createInvoice(@RequestBody Invoices invoice,
+                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) throws Exception {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return saveInvoice(invoice);
+        }
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        String requestHash = requestHash(invoice);
+        // A retry of an earlier submission gets the original invoice back instead of a duplicate
+        Invoices result = idempotencyStore.execute(idempotencyKey, () -> invoiceRepo.findByIdempotencyKey(idempotencyKey)
+                .orElseGet(() -> {
+                    invoice.setIdempotencyKey(idempotencyKey);
+                    invoice.setRequestHash(requestHash);
+                    try {
+                        return withCustomer(saveInvoice(invoice));
+                    } catch (DataIntegrityViolationException e) {
+                        // Lost the race on the unique key to another instance or an evicted entry
+                        return invoiceRepo.findByIdempotencyKey(idempotencyKey).orElseThrow(() -> e);
+                    }
+                }));
+        if (!requestHash.equals(result.getRequestHash())) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different invoice");
+        }
+        return result;
+    }
+
+    private Invoices saveInvoice(Invoices invoice) {
+        // Database precision, so a reloaded invoice serializes the same as the one returned here
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         if (invoice.getInvoiceItems() != null) {
             for (InvoiceItems item : invoice.getInvoiceItems()) {
                 item.setCreatedAt(now);
@@ -38,6 +80,19 @@ public class BillingController {
         return invoiceRepo.save(invoice);
     }
     
+    // Replays are loaded by findByIdempotencyKey with the customer fetched; the first response must match
+    private Invoices withCustomer(Invoices invoice) {
+        if (invoice.getCustomerId() != null) {
+            invoice.setCustomer(customerRepo.findById(invoice.getCustomerId()).orElse(null));
+        }
+        return invoice;
+    }
+
+    private String requestHash(Invoices invoice) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(invoice));
+        return HexFormat.of().formatHex(digest);
+    }
+
     @GetMapping("/invoices")
     public List<Invoices> getAllInvoices() {
         return invoiceRepo.findAllByOrderByIdDesc();
@@ -0,0 +1,76 @@
+package com.example.textile.loadgen;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk-inserts a synthetic catalogue for the load generator. Barcodes use the
+ * "LG" prefix so they never collide with the "WC" sequence used by real products,
+ * and re-running against the same database only adds the missing rows.
+ */
+@Component
+@Profile("loadgen")
+@RequiredArgsConstructor
+public class CatalogueSeeder {
+
+    static final String BARCODE_PREFIX = "LG";
+
+    private static final String[] FABRICS = {"Cotton", "Silk", "Linen", "Rayon", "Polyester", "Denim"};
+    private static final String[] PATTERNS = {"Plain", "Checked", "Striped", "Printed", "Embroidered"};
+    private static final String[] SIZES = {"S", "M", "L", "XL", "XXL", "Free"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<String> seed(int size, int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> barcodes = new ArrayList<>(size);
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 1; i <= size; i++) {
+            String barcode = barcode(i);
+            barcodes.add(barcode);
+            double retail = 199 + (i % 50) * 40;
+            batch.add(new Object[]{
+                    "Loadgen Supplier " + (i % 20),
+                    FABRICS[i % FABRICS.length] + " " + PATTERNS[i % PATTERNS.length] + " #" + i,
+                    retail * 0.6,
+                    retail,
+                    FABRICS[i % FABRICS.length],
+                    PATTERNS[i % PATTERNS.length],
+                    SIZES[i % SIZES.length],
+                    1_000_000,
+                    "5208",
+                    barcode,
+                    "ACTIVE",
+                    Timestamp.valueOf(now),
+                    Timestamp.valueOf(now)
+            });
+            if (batch.size() == batchSize) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(batch);
+        }
+        return barcodes;
+    }
+
+    static String barcode(int i) {
+        return BARCODE_PREFIX + String.format("%08d", i);
+    }
+
+    private void insert(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO products (supplier_name, product_name, wholesale_price, retail_price, fabric_type, "
+                        + "pattern, size, quantity, hsn_code, barcode, status, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (barcode) DO NOTHING",
+                batch);
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.textile.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One simulated billing counter. Each loop is a full bill: scan a few items by
+ * barcode, look up (and sometimes upsert) the customer, post the invoice, and
+ * occasionally print the PDF or a barcode label. Think times sit between steps.
+ */
+public class CounterSimulator implements Runnable {
+
+    static final String SCAN = "GET /api/products/barcode/{code}";
+    static final String CUSTOMER_LOOKUP = "GET /api/customers/phone/{phone}";
+    static final String CUSTOMER_UPSERT = "POST /api/customers/upsert";
+    static final String INVOICE = "POST /api/billing/invoice";
+    static final String INVOICE_PDF = "GET /api/billing/invoice/{id}/pdf";
+    static final String LABEL = "GET /api/products/barcode/{code}/image";
+
+    private final int counterId;
+    private final LoadGenProperties props;
+    private final HttpClient client;
+    private final ObjectMapper mapper;
+    private final LatencyRecorder recorder;
+    private final List<String> barcodes;
+    private final long deadlineNanos;
+
+    public CounterSimulator(int counterId, LoadGenProperties props, HttpClient client, ObjectMapper mapper,
+                            LatencyRecorder recorder, List<String> barcodes, long deadlineNanos) {
+        this.counterId = counterId;
+        this.props = props;
+        this.client = client;
+        this.mapper = mapper;
+        this.recorder = recorder;
+        this.barcodes = barcodes;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public void run() {
+        // Stagger counters so they don't all scan in lock-step
+        pause(ThreadLocalRandom.current().nextLong(props.getBillThinkMaxMs() + 1));
+        while (!pastDeadline() && !Thread.currentThread().isInterrupted()) {
+            try {
+                runBill();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                System.err.println("Counter " + counterId + " bill failed: " + e.getMessage());
+            }
+            pause(think(props.getBillThinkMinMs(), props.getBillThinkMaxMs()));
+        }
+    }
+
+    private void runBill() throws Exception {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int items = rnd.nextInt(props.getItemsPerInvoiceMin(), props.getItemsPerInvoiceMax() + 1);
+
+        ArrayNode invoiceItems = mapper.createArrayNode();
+        double subtotal = 0;
+        String lastBarcode = null;
+        for (int i = 0; i < items; i++) {
+            if (pastDeadline()) {
+                return;
+            }
+            String barcode = barcodes.get(rnd.nextInt(barcodes.size()));
+            HttpResponse<String> res = send(SCAN, get("/api/products/barcode/" + barcode));
+            if (res.statusCode() == 200) {
+                JsonNode product = mapper.readTree(res.body());
+                int qty = rnd.nextInt(1, 4);
+                double price = product.path("retailPrice").asDouble();
+                double lineTotal = price * qty;
+                ObjectNode item = invoiceItems.addObject();
+                item.put("productId", product.path("id").asLong());
+                item.put("productName", product.path("productName").asText());
+                item.put("barcode", barcode);
+                item.put("hsnCode", product.path("hsnCode").asText());
+                item.put("price", price);
+                item.put("quantity", qty);
+                item.put("subTotal", lineTotal);
+                item.put("discountPercentage", 0.0);
+                item.put("discountAmount", 0.0);
+                item.put("total", lineTotal);
+                subtotal += lineTotal;
+                lastBarcode = barcode;
+            }
+            pause(think(props.getScanThinkMinMs(), props.getScanThinkMaxMs()));
+        }
+        if (invoiceItems.isEmpty() || pastDeadline()) {
+            return;
+        }
+
+        Long customerId = customer(rnd);
+
+        double cgst = round(subtotal * 0.025);
+        ObjectNode invoice = mapper.createObjectNode();
+        if (customerId != null) {
+            invoice.put("customerId", customerId);
+        }
+        invoice.put("subtotal", subtotal);
+        invoice.put("discount", 0.0);
+        invoice.put("taxableAmount", subtotal);
+        invoice.put("cgstPercentage", "2.5");
+        invoice.put("cgst", cgst);
+        invoice.put("sgstPercentage", "2.5");
+        invoice.put("sgst", cgst);
+        invoice.put("total", round(subtotal + 2 * cgst));
+        invoice.put("paymentMethod", rnd.nextBoolean() ? "CASH" : "UPI");
+        invoice.set("invoiceItems", invoiceItems);
+        HttpResponse<String> created = send(INVOICE, post("/api/billing/invoice", invoice)
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .build());
+
+        if (created.statusCode() == 200 && rnd.nextDouble() < props.getPdfFetchRatio()) {
+            long invoiceId = mapper.readTree(created.body()).path("id").asLong();
+            sendDiscarding(INVOICE_PDF, get("/api/billing/invoice/" + invoiceId + "/pdf"));
+        }
+        if (lastBarcode != null && rnd.nextDouble() < props.getLabelFetchRatio()) {
+            sendDiscarding(LABEL, get("/api/products/barcode/" + lastBarcode + "/image"));
+        }
+    }
+
+    private Long customer(ThreadLocalRandom rnd) throws Exception {
+        String phone = "9" + String.format("%09d", rnd.nextInt(props.getCustomerPoolSize()));
+        HttpResponse<String> found = send(CUSTOMER_LOOKUP, get("/api/customers/phone/" + phone));
+        if (found.statusCode() == 200 && rnd.nextDouble() >= props.getCustomerUpsertRatio()) {
+            return mapper.readTree(found.body()).path("id").asLong();
+        }
+        ObjectNode customer = mapper.createObjectNode();
+        customer.put("name", "Loadgen Customer " + phone);
+        customer.put("phoneNumber", phone);
+        customer.put("address", "Counter " + counterId);
+        HttpResponse<String> saved = send(CUSTOMER_UPSERT, post("/api/customers/upsert", customer).build());
+        return saved.statusCode() == 200 ? mapper.readTree(saved.body()).path("id").asLong() : null;
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest request) throws Exception {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> res = client.send(request, HttpResponse.BodyHandlers.ofString());
+            recorder.record(endpoint, System.nanoTime() - start, isExpected(endpoint, res.statusCode()));
+            return res;
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            recorder.record(endpoint, System.nanoTime() - start, false);
+            throw e;
+        }
+    }
+
+    private void sendDiscarding(String endpoint, HttpRequest request) throws Exception {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> res = client.send(request, HttpResponse.BodyHandlers.discarding());
+            recorder.record(endpoint, System.nanoTime() - start, isExpected(endpoint, res.statusCode()));
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            recorder.record(endpoint, System.nanoTime() - start, false);
+            throw e;
+        }
+    }
+
+    /** Any non-2xx is an error, except a customer lookup miss which is a normal 404. */
+    private static boolean isExpected(String endpoint, int status) {
+        return (status >= 200 && status < 300) || (CUSTOMER_LOOKUP.equals(endpoint) && status == 404);
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest.Builder post(String path, JsonNode body) throws Exception {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(props.getBaseUrl() + path))
+                .timeout(Duration.ofMillis(props.getRequestTimeoutMs()));
+    }
+
+    private static long think(long min, long max) {
+        return max <= min ? min : ThreadLocalRandom.current().nextLong(min, max + 1);
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 100.0) / 100.0;
+    }
+
+    private boolean pastDeadline() {
+        return System.nanoTime() >= deadlineNanos;
+    }
+
+    /** Think time, cut short so no counter idles past the end of the run. */
+    private void pause(long ms) {
+        sleep(Math.min(ms, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime())));
+    }
+
+    private static void sleep(long ms) {
+        if (ms <= 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.textile.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms shared by all simulated counters.
+ * Latencies are recorded in microseconds. Only requests that complete inside the
+ * measurement window, from {@link #startMeasuring()} to the run deadline, are counted.
+ */
+public class LatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final long deadlineNanos;
+    private volatile long startNanos;
+    private volatile boolean measuring;
+
+    public LatencyRecorder(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public void record(String endpoint, long elapsedNanos, boolean ok) {
+        Recorder recorder = recorders.computeIfAbsent(endpoint, k -> new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+        if (System.nanoTime() >= deadlineNanos) {
+            return;
+        }
+        recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), HIGHEST_TRACKABLE_MICROS));
+        if (!ok && measuring) {
+            errors.computeIfAbsent(endpoint, k -> new LongAdder()).increment();
+        }
+    }
+
+    /** Ends warmup: everything recorded so far is discarded. */
+    public void startMeasuring() {
+        startNanos = System.nanoTime();
+        measuring = true;
+        recorders.values().forEach(Recorder::getIntervalHistogram);
+    }
+
+    /** Call once the run deadline has passed. */
+    public String report() {
+        double elapsedSec = (deadlineNanos - startNanos) / 1_000_000_000.0;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%nLoad test report (%.1f s measured)%n", elapsedSec));
+        sb.append(String.format("%-40s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        long total = 0;
+        for (Map.Entry<String, Recorder> e : new TreeMap<>(recorders).entrySet()) {
+            Histogram h = e.getValue().getIntervalHistogram();
+            LongAdder err = errors.get(e.getKey());
+            total += h.getTotalCount();
+            sb.append(String.format("%-40s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    e.getKey(),
+                    h.getTotalCount(),
+                    err == null ? 0 : err.sum(),
+                    h.getTotalCount() / elapsedSec,
+                    h.getValueAtPercentile(50) / 1000.0,
+                    h.getValueAtPercentile(99) / 1000.0,
+                    h.getValueAtPercentile(99.9) / 1000.0,
+                    h.getMaxValue() / 1000.0));
+        }
+        sb.append(String.format("%-40s %9d %7s %9.1f%n", "all", total, "", total / elapsedSec));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.textile.loadgen;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the counter load generator, bound from {@code loadgen.*}
+ * in application-loadgen.yml.
+ */
+@Component
+@Profile("loadgen")
+@ConfigurationProperties(prefix = "loadgen")
+@Data
+public class LoadGenProperties {
+    /** Base URL of the API under test; defaults to this instance. */
+    private String baseUrl = "http://localhost:9080";
+    /** Number of simulated billing counters (one thread each). */
+    private int counters = 8;
+    private int warmupSeconds = 30;
+    private int durationSeconds = 300;
+
+    /** Pause between scans at a counter, picked uniformly from [min, max]. */
+    private long scanThinkMinMs = 500;
+    private long scanThinkMaxMs = 2000;
+    /** Pause between finishing one bill and starting the next. */
+    private long billThinkMinMs = 5000;
+    private long billThinkMaxMs = 15000;
+
+    private int itemsPerInvoiceMin = 1;
+    private int itemsPerInvoiceMax = 6;
+
+    /** Synthetic products seeded in bulk before the run. */
+    private int catalogueSize = 20000;
+    private int seedBatchSize = 1000;
+    /** Distinct customer phone numbers the counters draw from. */
+    private int customerPoolSize = 5000;
+
+    /** Fraction of bills where the customer details are re-saved even if found. */
+    private double customerUpsertRatio = 0.1;
+    /** Fraction of bills followed by an invoice PDF download. */
+    private double pdfFetchRatio = 0.2;
+    /** Fraction of bills followed by a barcode label fetch. */
+    private double labelFetchRatio = 0.05;
+
+    private long requestTimeoutMs = 30000;
+    /** Shut the application down once the report has been printed. */
+    private boolean exitOnFinish = true;
+}
@@ -0,0 +1,82 @@
+package com.example.textile.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the counter simulation once the application is up: seeds the synthetic
+ * catalogue, runs N counters over HTTP for warmup + duration, then prints the
+ * per-endpoint throughput and latency report.
+ *
+ * Run with: mvn spring-boot:run -Dspring-boot.run.profiles=loadgen
+ */
+@Component
+@Profile("loadgen")
+@RequiredArgsConstructor
+public class LoadGenRunner {
+
+    private final LoadGenProperties props;
+    private final CatalogueSeeder seeder;
+    private final ObjectMapper mapper;
+    private final ConfigurableApplicationContext context;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        Thread driver = new Thread(this::runLoad, "loadgen-driver");
+        driver.start();
+    }
+
+    private void runLoad() {
+        long seedStart = System.nanoTime();
+        List<String> barcodes = seeder.seed(props.getCatalogueSize(), props.getSeedBatchSize());
+        System.out.printf("Seeded %d synthetic products in %d ms%n",
+                barcodes.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(props.getRequestTimeoutMs()))
+                .build();
+        long deadline = System.nanoTime()
+                + TimeUnit.SECONDS.toNanos(props.getWarmupSeconds() + props.getDurationSeconds());
+        LatencyRecorder recorder = new LatencyRecorder(deadline);
+
+        ExecutorService counters = Executors.newFixedThreadPool(props.getCounters());
+        for (int i = 1; i <= props.getCounters(); i++) {
+            counters.submit(new CounterSimulator(i, props, client, mapper, recorder, barcodes, deadline));
+        }
+        System.out.printf("Started %d counters against %s (warmup %d s, measure %d s)%n",
+                props.getCounters(), props.getBaseUrl(), props.getWarmupSeconds(), props.getDurationSeconds());
+
+        try {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(props.getWarmupSeconds()));
+            recorder.startMeasuring();
+            counters.shutdown();
+            // Counters stop at the deadline; allow in-flight requests to time out
+            if (!counters.awaitTermination(props.getDurationSeconds() + 60L + props.getRequestTimeoutMs() / 1000,
+                    TimeUnit.SECONDS)) {
+                counters.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            counters.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        System.out.println(recorder.report());
+        if (props.isExitOnFinish()) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.textile.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
@@ -28,6 +29,13 @@ public class Invoices {
     private Double sgst;
     private Double total;
     private String paymentMethod;
+    @Column(unique = true, length = 100)
+    @JsonIgnore
+    private String idempotencyKey;
+    // SHA-256 of the request that created this invoice under idempotencyKey
+    @Column(length = 64)
+    @JsonIgnore
+    private String requestHash;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
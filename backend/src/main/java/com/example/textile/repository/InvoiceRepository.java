@@ -1,9 +1,15 @@
 package com.example.textile.repository;
 import com.example.textile.model.Invoices;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface InvoiceRepository extends JpaRepository<Invoices, Long> {
     List<Invoices> findAllByOrderByIdDesc();
+
+    // Fully loaded so the result can be cached and serialized outside the session
+    @EntityGraph(attributePaths = {"invoiceItems", "customer"})
+    Optional<Invoices> findByIdempotencyKey(String idempotencyKey);
 }
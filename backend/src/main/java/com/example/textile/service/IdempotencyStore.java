@@ -0,0 +1,54 @@
+package com.example.textile.service;
+
+import com.example.textile.model.Invoices;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache of invoice responses keyed by the client's Idempotency-Key.
+ * Concurrent submissions with the same key are serialized so only the first one creates
+ * the invoice; the rest get its result. Entries evicted from here (or created on another
+ * instance) are still caught by the unique idempotency_key column.
+ */
+@Service
+public class IdempotencyStore {
+
+    private final Map<String, Invoices> responses;
+    private final Map<String, Object> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(@Value("${billing.idempotency.max-entries:10000}") int maxEntries) {
+        this.responses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Invoices> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public Invoices execute(String key, Supplier<Invoices> action) {
+        Invoices cached = responses.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Object lock = inFlight.computeIfAbsent(key, k -> new Object());
+        synchronized (lock) {
+            try {
+                cached = responses.get(key);
+                if (cached != null) {
+                    return cached;
+                }
+                Invoices result = action.get();
+                responses.put(key, result);
+                return result;
+            } finally {
+                inFlight.remove(key, lock);
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.textile.controller;
+
+import com.example.textile.model.Customers;
+import com.example.textile.model.Invoices;
+import com.example.textile.repository.CustomerRepository;
+import com.example.textile.repository.InvoiceRepository;
+import com.example.textile.service.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.handler.WebRequestHandlerInterceptorAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs against H2 with the in-memory idempotency store disabled (max-entries 0), so a
+ * replay arriving after the first request finished is answered from the idempotency_key
+ * column. Submissions still in flight on one instance are serialized by its store; the
+ * unique-key fallback is exercised by racing two instances with separate stores.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+class BillingControllerIdempotencyTest {
+
+    private static final String BODY = """
+            {"subtotal": 500.0, "total": 525.0, "paymentMethod": "CASH",
+             "invoiceItems": [{"productName": "Cotton Shirt", "barcode": "WC000001",
+                               "price": 500.0, "quantity": 1, "total": 500.0}]}
+            """;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private BillingController billingController;
+    @SpyBean private InvoiceRepository invoiceRepo;
+    @Autowired private CustomerRepository customerRepo;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private AutowireCapableBeanFactory beanFactory;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void replayWithoutCachedEntryReturnsStoredInvoice() throws Exception {
+        Customers customer = new Customers();
+        customer.setName("Replay Customer");
+        customer.setPhoneNumber("9000000001");
+        Long customerId = customerRepo.save(customer).getId();
+        String body = BODY.replace("{\"subtotal\"", "{\"customerId\": " + customerId + ", \"subtotal\"");
+        long before = invoiceRepo.count();
+
+        String first = mockMvc.perform(invoice("replay-1", body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customer.phoneNumber").value("9000000001"))
+                .andReturn().getResponse().getContentAsString();
+        String second = mockMvc.perform(invoice("replay-1", body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, second);
+        assertEquals(before + 1, invoiceRepo.count());
+    }
+
+    @Test
+    void concurrentDuplicateSubmissionsCreateOneInvoice() throws Exception {
+        long before = invoiceRepo.count();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Invoices>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    Invoices invoice = new Invoices();
+                    invoice.setTotal(100.0);
+                    invoice.setPaymentMethod("UPI");
+                    start.await();
+                    return billingController.createInvoice(invoice, "concurrent-1");
+                }));
+            }
+            start.countDown();
+
+            Long id = results.get(0).get(30, TimeUnit.SECONDS).getId();
+            assertNotNull(id);
+            for (Future<Invoices> result : results) {
+                assertEquals(id, result.get(30, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(before + 1, invoiceRepo.count());
+    }
+
+    @Test
+    void instancesRacingOnOneKeyFallBackToStoredRow() throws Exception {
+        long before = invoiceRepo.count();
+        // Hold both first lookups until each instance has missed, so both go on to save
+        CyclicBarrier bothMissed = new CyclicBarrier(2);
+        AtomicInteger lookups = new AtomicInteger();
+        // Repository spies wrap a JDK proxy; the default answer delegates to the real bean
+        Answer<?> real = mockingDetails(invoiceRepo).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(call -> {
+            Object result = real.answer(call);
+            if (lookups.incrementAndGet() <= 2) {
+                bothMissed.await(10, TimeUnit.SECONDS);
+            }
+            return result;
+        }).when(invoiceRepo).findByIdempotencyKey("race-1");
+
+        List<MockMvc> instances = List.of(instance(), instance());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(instances.size());
+        List<String> responses = new ArrayList<>();
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (MockMvc instance : instances) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return instance.perform(invoice("race-1", BODY))
+                            .andExpect(status().isOk())
+                            .andReturn().getResponse().getContentAsString();
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                responses.add(result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Two misses plus the reload after the losing save hit the unique key
+        verify(invoiceRepo, times(3)).findByIdempotencyKey("race-1");
+        assertEquals(before + 1, invoiceRepo.count());
+        assertEquals(idOf(responses.get(0)), idOf(responses.get(1)));
+        assertEquals(responses.get(0), responses.get(1));
+    }
+
+    @Test
+    void databaseRejectsDuplicateKey() {
+        Invoices first = new Invoices();
+        first.setIdempotencyKey("unique-1");
+        invoiceRepo.saveAndFlush(first);
+
+        Invoices second = new Invoices();
+        second.setIdempotencyKey("unique-1");
+        assertThrows(DataIntegrityViolationException.class, () -> invoiceRepo.saveAndFlush(second));
+    }
+
+    @Test
+    void reusedKeyWithDifferentBodyIsRejected() throws Exception {
+        mockMvc.perform(invoice("mismatch-1", BODY)).andExpect(status().isOk());
+        long before = invoiceRepo.count();
+
+        mockMvc.perform(invoice("mismatch-1", BODY.replace("525.0", "999.0")))
+                .andExpect(status().isUnprocessableEntity());
+        assertEquals(before, invoiceRepo.count());
+    }
+
+    @Test
+    void overlongKeyIsRejected() throws Exception {
+        long before = invoiceRepo.count();
+
+        mockMvc.perform(invoice("k".repeat(101), BODY)).andExpect(status().isBadRequest());
+        assertEquals(before, invoiceRepo.count());
+    }
+
+    @Test
+    void keyIsNotExposedInResponse() throws Exception {
+        mockMvc.perform(invoice("hidden-1", BODY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.idempotencyKey").doesNotExist())
+                .andExpect(jsonPath("$.requestHash").doesNotExist());
+    }
+
+    private static MockHttpServletRequestBuilder invoice(String key, String body) {
+        return post("/api/billing/invoice")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+
+    /** A second application instance: its own controller and in-memory store, with open-in-view. */
+    private MockMvc instance() {
+        BillingController controller = beanFactory.createBean(BillingController.class);
+        ReflectionTestUtils.setField(controller, "idempotencyStore", new IdempotencyStore(0));
+        OpenEntityManagerInViewInterceptor openInView = new OpenEntityManagerInViewInterceptor();
+        openInView.setEntityManagerFactory(entityManagerFactory);
+        return MockMvcBuilders.standaloneSetup(controller)
+                .addInterceptors(new WebRequestHandlerInterceptorAdapter(openInView))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+    }
+
+    private long idOf(String json) throws Exception {
+        return objectMapper.readTree(json).path("id").asLong();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.textile.service;
+
+import com.example.textile.model.Invoices;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private static final int THREADS = 16;
+
+    @Test
+    void concurrentDuplicatesRunSupplierOnce() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(100);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Invoices>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return store.execute("key-1", () -> {
+                        calls.incrementAndGet();
+                        sleep(50);
+                        Invoices invoice = new Invoices();
+                        invoice.setInvoiceNumber("INV-1");
+                        return invoice;
+                    });
+                }));
+            }
+            start.countDown();
+
+            Invoices first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Invoices> result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedSupplierIsNotCached() {
+        IdempotencyStore store = new IdempotencyStore(100);
+        assertThrows(IllegalStateException.class, () -> store.execute("key-1", () -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        Invoices invoice = new Invoices();
+        assertSame(invoice, store.execute("key-1", () -> invoice));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxEntries() {
+        IdempotencyStore store = new IdempotencyStore(2);
+        AtomicInteger calls = new AtomicInteger();
+        for (String key : List.of("a", "b", "c", "a")) {
+            store.execute(key, () -> {
+                calls.incrementAndGet();
+                return new Invoices();
+            });
+        }
+        assertEquals(4, calls.get());
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}